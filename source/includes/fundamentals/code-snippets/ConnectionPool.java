@@ -23,7 +23,10 @@ public class ConnectionPool {
                 MongoClientSettings.builder().applyConnectionString(
                     new ConnectionString("<your connection string>"))
                 .applyToConnectionPoolSettings(builder ->
-                    builder.maxSize(50))
+                    builder.minSize(10)
+                        .maxSize(200)
+                        .maxConnectionIdleTime(60, SECONDS)
+                        .maxWaitTime(10, SECONDS))
                 .build());
             //end MongoSettings
             mongoClient.listDatabaseNames().forEach(n -> System.out.println(n));
@@ -12,8 +12,15 @@ import org.bson.conversions.Bson;
 import java.util.Arrays;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.bson.Document;
+import org.bson.RawBsonDocument;
 import com.mongodb.client.model.Filters;
 
 public class Cursor {
@@ -29,13 +36,16 @@ public class Cursor {
         collection = database.getCollection("orders");
     }
 
-    public static void main(String [] args){
+    public static void main(String [] args) throws Exception {
         Cursor c = new Cursor();
         c.setupPaintCollection();
 
         System.out.println("For Each Iteration");
         c.forEachIteration();
 
+        System.out.println("Raw Document Iteration");
+        c.rawDocumentIteration();
+
         System.out.println("First Example");
         c.firstExample();
 
@@ -51,6 +61,9 @@ public class Cursor {
         System.out.println("Manual Iteration");
         c.manualIteration();
         
+        System.out.println("Prefetch Iteration");
+        c.prefetchIteration();
+
         System.out.println("Close Example");
         c.closeExample();
 
@@ -66,6 +79,14 @@ public class Cursor {
         // end forEachIteration
     }
 
+    private void rawDocumentIteration(){
+        // Prints the JSON representation of all documents in the collection without decoding them into Document instances
+        // begin rawDocumentIteration
+        MongoCollection<RawBsonDocument> rawCollection = collection.withDocumentClass(RawBsonDocument.class);
+        rawCollection.find().forEach(doc -> System.out.println(doc.toJson()));
+        // end rawDocumentIteration
+    }
+
     private void firstExample(){
         // Prints the first document that matches the query
         // begin firstExample
@@ -111,6 +132,49 @@ public class Cursor {
         // end manualIteration
     }
 
+    private void prefetchIteration() throws Exception {
+        // Retrieves the next batch of results on a background thread while the application processes the current batch
+        // begin prefetchIteration
+        BlockingQueue<Document> prefetched = new ArrayBlockingQueue<>(1000);
+        Document endOfResults = new Document();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // Copies results into the queue, waiting whenever the queue is full
+        Future<?> prefetcher = executor.submit(() -> {
+            try (MongoCursor<Document> cursor = collection.find().batchSize(500).cursor()) {
+                while (cursor.hasNext()) {
+                    prefetched.put(cursor.next());
+                }
+                prefetched.put(endOfResults);
+            } catch (RuntimeException e) {
+                // Stops the application's loop so that it can throw the exception
+                prefetched.put(endOfResults);
+                throw e;
+            }
+            return null;
+        });
+
+        try {
+            Document doc;
+            while ((doc = prefetched.take()) != endOfResults) {
+                System.out.println(doc.toJson());
+            }
+            try {
+                prefetcher.get();
+            } catch (ExecutionException e) {
+                // Throws the original exception, such as a MongoException, that stopped the cursor
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        } finally {
+            // Interrupts the background thread if the application stopped early, which closes the cursor
+            executor.shutdownNow();
+        }
+        // end prefetchIteration
+    }
+
     private void closeExample(){
         // Ensures the cursor frees up its resources after printing the documents it retrieved
         // begin closeExample
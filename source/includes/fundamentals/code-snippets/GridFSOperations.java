@@ -3,11 +3,20 @@ package fundamentals;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.function.Consumer;
+import java.util.zip.DeflaterInputStream;
+import java.util.zip.InflaterInputStream;
 
 import org.bson.Document;
 import org.bson.conversions.Bson;
@@ -25,6 +34,7 @@ import com.mongodb.client.gridfs.model.GridFSDownloadOptions;
 import com.mongodb.client.gridfs.model.GridFSFile;
 import com.mongodb.client.gridfs.model.GridFSUploadOptions;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
 import com.mongodb.client.model.Sorts;
 
 public final class GridFSOperations {
@@ -65,19 +75,23 @@ public final class GridFSOperations {
     }
 
     private static void uploadFromOutputStream(GridFSBucket gridFSBucket) throws Exception {
-        // Reads the file data from the specified path into memory
         // start uploadFromOutputStream
         Path filePath = Paths.get("/path/to/project.zip");
-        byte[] data = Files.readAllBytes(filePath);
+        int chunkSizeBytes = 1048576;
 
         // Defines options that specify configuration information for files uploaded to the bucket
         GridFSUploadOptions options = new GridFSUploadOptions()
-                .chunkSizeBytes(1048576)
+                .chunkSizeBytes(chunkSizeBytes)
                 .metadata(new Document("type", "zip archive"));
 
-        try (GridFSUploadStream uploadStream = gridFSBucket.openUploadStream("myProject.zip", options)) {
-            // Writes file data to the GridFS upload stream
-            uploadStream.write(data);
+        try (InputStream fileStream = Files.newInputStream(filePath);
+             GridFSUploadStream uploadStream = gridFSBucket.openUploadStream("myProject.zip", options)) {
+            // Reads the file one chunk at a time and writes each chunk to the GridFS upload stream
+            byte[] buffer = new byte[chunkSizeBytes];
+            int bytesRead;
+            while ((bytesRead = fileStream.read(buffer)) != -1) {
+                uploadStream.write(buffer, 0, bytesRead);
+            }
             uploadStream.flush();
 
             // Prints the "_id" value of the uploaded file
@@ -90,6 +104,77 @@ public final class GridFSOperations {
         // end uploadFromOutputStream
     }
 
+    private static void uploadIfAbsent(MongoDatabase database) throws Exception {
+        // start uploadIfAbsent
+        GridFSBucket gridFSBucket = GridFSBuckets.create(database, "myCustomBucket");
+
+        // Indexes the content hash so that the duplicate check doesn't scan the files collection
+        database.getCollection("myCustomBucket.files").createIndex(Indexes.ascending("metadata.sha256"));
+
+        // Computes a SHA-256 hash of the file contents
+        Path filePath = Paths.get("/path/to/project.zip");
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream fileStream = new DigestInputStream(Files.newInputStream(filePath), digest)) {
+            byte[] buffer = new byte[1048576];
+            while (fileStream.read(buffer) != -1) {
+                // Reads the file to update the digest
+            }
+        }
+        String sha256 = String.format("%064x", new BigInteger(1, digest.digest()));
+
+        // Uploads the file only if the bucket doesn't already contain a file with the same contents
+        GridFSFile existingFile = gridFSBucket.find(Filters.eq("metadata.sha256", sha256)).first();
+        if (existingFile != null) {
+            System.out.println("The file is already stored with id: " + existingFile.getObjectId().toHexString());
+        } else {
+            GridFSUploadOptions options = new GridFSUploadOptions()
+                    .chunkSizeBytes(1048576)
+                    .metadata(new Document("type", "zip archive").append("sha256", sha256));
+            try (InputStream streamToUploadFrom = Files.newInputStream(filePath)) {
+                ObjectId fileId = gridFSBucket.uploadFromStream("myProject.zip", streamToUploadFrom, options);
+                System.out.println("The file id of the uploaded file is: " + fileId.toHexString());
+            }
+        }
+        // end uploadIfAbsent
+    }
+
+    private static void uploadCompressed(GridFSBucket gridFSBucket) throws Exception {
+        // start uploadCompressed
+        Path filePath = Paths.get("/var/log/myApp.log");
+
+        // Records the compression format in the metadata so that readers know how to decompress the file
+        GridFSUploadOptions options = new GridFSUploadOptions()
+                .chunkSizeBytes(1048576)
+                .metadata(new Document("type", "log").append("compression", "deflate"));
+
+        // Compresses the file contents as the driver reads them from the input stream
+        try (InputStream streamToUploadFrom = new DeflaterInputStream(Files.newInputStream(filePath))) {
+            ObjectId fileId = gridFSBucket.uploadFromStream("myApp.log", streamToUploadFrom, options);
+            System.out.println("The file id of the uploaded file is: " + fileId.toHexString());
+        }
+        // end uploadCompressed
+    }
+
+    private static void downloadCompressed(GridFSBucket gridFSBucket) throws Exception {
+        // start downloadCompressed
+        try (GridFSDownloadStream downloadStream = gridFSBucket.openDownloadStream("myApp.log")) {
+            // Decompresses the file contents only if the file was stored compressed
+            Document metadata = downloadStream.getGridFSFile().getMetadata();
+            boolean isCompressed = metadata != null && "deflate".equals(metadata.getString("compression"));
+
+            // Closes the InflaterInputStream to release its native resources
+            try (InputStream fileStream = isCompressed ? new InflaterInputStream(downloadStream) : downloadStream;
+                 OutputStream streamToDownloadTo = Files.newOutputStream(Paths.get("/tmp/myApp.log"))) {
+                byte[] buffer = new byte[1048576];
+                int bytesRead;
+                while ((bytesRead = fileStream.read(buffer)) != -1) {
+                    streamToDownloadTo.write(buffer, 0, bytesRead);
+                }
+            }
+        }
+        // end downloadCompressed
+    }
+
     private static void findAllFiles(GridFSBucket gridFSBucket) throws Exception {
         // Prints the details of each file in the GridFS bucket
         // start findAllFiles
@@ -141,7 +226,14 @@ public final class GridFSOperations {
         try (GridFSDownloadStream downloadStream = gridFSBucket.openDownloadStream(fileId)) {
             int fileLength = (int) downloadStream.getGridFSFile().getLength();
             byte[] bytesToWriteTo = new byte[fileLength];
-            downloadStream.read(bytesToWriteTo);
+
+            // Reads until the array is full, since each call to read() might return fewer bytes
+            int offset = 0;
+            int bytesRead;
+            while (offset < fileLength
+                    && (bytesRead = downloadStream.read(bytesToWriteTo, offset, fileLength - offset)) != -1) {
+                offset += bytesRead;
+            }
 
             // Prints the downloaded file's contents as a string
             System.out.println(new String(bytesToWriteTo, StandardCharsets.UTF_8));
@@ -149,6 +241,34 @@ public final class GridFSOperations {
         // end downloadToMemory
     }
 
+    private static void downloadRange(GridFSBucket gridFSBucket) throws Exception {
+        // start downloadRange
+        ObjectId fileId = new ObjectId("60345d38ebfcf47030e81cc9");
+        long rangeStart = 5242880; // 5MB
+        long rangeLength = 1048576; // 1MB
+
+        // Opens an input stream to read a file containing a specified "_id" value
+        try (GridFSDownloadStream downloadStream = gridFSBucket.openDownloadStream(fileId);
+             FileChannel fileChannel = FileChannel.open(Paths.get("/tmp/myProject.zip.part"),
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // Moves to the chunk that contains the start of the range without reading the preceding chunks
+            downloadStream.skip(rangeStart);
+
+            // Copies the range to the file one chunk at a time
+            ByteBuffer buffer = ByteBuffer.allocate(downloadStream.getGridFSFile().getChunkSize());
+            long remaining = rangeLength;
+            int bytesRead;
+            while (remaining > 0 && (bytesRead = downloadStream.read(buffer.array(), 0,
+                    (int) Math.min(buffer.capacity(), remaining))) != -1) {
+                buffer.limit(bytesRead);
+                fileChannel.write(buffer);
+                buffer.clear();
+                remaining -= bytesRead;
+            }
+        }
+        // end downloadRange
+    }
+
 
     private static void renameFile(GridFSBucket gridFSBucket) throws Exception {
         // start renameFile
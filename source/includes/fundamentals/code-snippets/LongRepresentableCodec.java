@@ -1,6 +1,5 @@
 package fundamentals;
 
-import org.bson.BsonInvalidOperationException;
 import org.bson.BsonReader;
 import org.bson.BsonType;
 import org.bson.BsonWriter;
@@ -14,16 +13,19 @@ import org.bson.codecs.configuration.CodecConfigurationException;
 // start class
 public class LongRepresentableCodec implements Codec<Long>, RepresentationConfigurable<Long> {
     private final BsonType representation;
+    private final boolean isDateTime;
 
     /**
      * Constructs a LongRepresentableCodec with a Int64 representation.
      */
     public LongRepresentableCodec() {
-        representation = BsonType.INT64;
+        this(BsonType.INT64);
     }
 
     private LongRepresentableCodec(final BsonType representation) {
         this.representation = representation;
+        // Resolves the representation once, rather than on each encode or decode
+        this.isDateTime = representation == BsonType.DATE_TIME;
     }
 
     @Override
@@ -37,36 +39,25 @@ public class LongRepresentableCodec implements Codec<Long>, RepresentationConfig
             throw new CodecConfigurationException(representation 
             + " is not a supported representation for LongRepresentableCodec");
         }
+        if (representation == this.representation) {
+            return this;
+        }
         return new LongRepresentableCodec(representation);
     }
 
 
     @Override
     public void encode(final BsonWriter writer, final Long value, final EncoderContext encoderContext) {
-        switch (representation) {
-            case INT64:
-                writer.writeInt64(value);
-                break;
-            case DATE_TIME:
-                writer.writeDateTime(value);
-                break;
-            default:
-                throw new BsonInvalidOperationException("Cannot encode a Long to a " 
-                + representation);
+        if (isDateTime) {
+            writer.writeDateTime(value);
+        } else {
+            writer.writeInt64(value);
         }
     }
 
     @Override
     public Long decode(final BsonReader reader, final DecoderContext decoderContext) {
-        switch (representation) {
-            case INT64:
-                return reader.readInt64();
-            case DATE_TIME:
-                return reader.readDateTime();
-            default:
-                throw new CodecConfigurationException("Cannot decode " + representation 
-                + " to a Long");
-        }
+        return isDateTime ? reader.readDateTime() : reader.readInt64();
     }
 
     @Override
@@ -1,20 +1,29 @@
 package com.mycompany.app;
 
 
-import java.util.HashMap;
-
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
 import com.mongodb.ReadPreference;
+import com.mongodb.ServerAddress;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.connection.ServerId;
+import com.mongodb.connection.ServerMonitoringMode;
 import com.mongodb.event.*;
 import org.bson.Document;
 
+import java.util.Arrays;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 public class Monitoring {
 
@@ -28,24 +37,31 @@ public class Monitoring {
         examples.monitorCommandEvent();
         System.out.println("\n---Cluster Event---\n");
         examples.monitorClusterEvent();
+        System.out.println("\n---Server Latency---\n");
+        examples.monitorServerLatency();
         System.out.println("\n---Connection Pool Event---\n");
         examples.monitorConnectionPoolEvent();
+        System.out.println("\n---Connection Pool Statistics---\n");
+        examples.monitorConnectionPoolStatistics();
     }
 
     private void monitorCommandEvent() {
         // start monitor-command-example
+        CommandCounter commandCounter = new CommandCounter();
         MongoClientSettings settings =
                 MongoClientSettings.builder()
                         .applyConnectionString(URI)
-                        .addCommandListener(new CommandCounter())
+                        .addCommandListener(commandCounter)
                         .build();
         MongoClient mongoClient = MongoClients.create(settings);
         MongoDatabase database = mongoClient.getDatabase(DATABASE);
         MongoCollection<Document> collection = database.getCollection(COLLECTION);
-        // Runs sample find() commands to test the timer
+        // Runs sample find() commands to test the counter
         collection.find().first();
         collection.find().first();
         mongoClient.close();
+        System.out.println(commandCounter.getCommandCounts());
+        System.out.println(commandCounter.getAverageElapsedMillis());
         // end monitor-command-example
     }
 
@@ -67,6 +83,30 @@ public class Monitoring {
         mongoClient.close();
     }
 
+    private void monitorServerLatency() throws InterruptedException {
+        // start monitor-server-latency-example
+        ServerLatencyTracker latencyTracker = new ServerLatencyTracker();
+        MongoClientSettings settings =
+                MongoClientSettings.builder()
+                        .applyConnectionString(URI)
+                        .applyToClusterSettings(builder ->
+                                builder.addClusterListener(latencyTracker))
+                        // Uses polling so that every heartbeat measures the round-trip time
+                        .applyToServerSettings(builder ->
+                                builder.addServerMonitorListener(latencyTracker)
+                                        .serverMonitoringMode(ServerMonitoringMode.POLL))
+                        .build();
+        MongoClient mongoClient = MongoClients.create(settings);
+        // Waits for several heartbeats so that the tracker collects round-trip time samples
+        Thread.sleep(60_000);
+        latencyTracker.getRoundTripTimePercentiles().forEach((address, percentiles) ->
+                System.out.println(address + ": " + percentiles));
+        System.out.println("Time without a writable server: "
+                + latencyTracker.getTimeWithoutWritableServer(TimeUnit.MILLISECONDS) + " ms");
+        mongoClient.close();
+        // end monitor-server-latency-example
+    }
+
     private void monitorConnectionPoolEvent() {
         // start monitor-cp-example
         ConnectionPoolLibrarian cpListener = new ConnectionPoolLibrarian();
@@ -87,19 +127,42 @@ public class Monitoring {
         //mongoClient.close();
     }
 
+    private void monitorConnectionPoolStatistics() {
+        // start monitor-cp-statistics-example
+        ConnectionPoolStatistics cpStatistics = new ConnectionPoolStatistics();
+        MongoClientSettings settings =
+                MongoClientSettings.builder()
+                        .applyConnectionString(URI)
+                        .applyToConnectionPoolSettings(builder ->
+                                builder.addConnectionPoolListener(cpStatistics))
+                        .build();
+        MongoClient mongoClient = MongoClients.create(settings);
+        MongoDatabase database = mongoClient.getDatabase(DATABASE);
+        MongoCollection<Document> collection = database.getCollection(COLLECTION);
+        // Runs sample find() commands to check out connections from the pool
+        collection.find().first();
+        collection.find().first();
+        cpStatistics.getSnapshot().forEach((address, snapshot) ->
+                System.out.println(address + ": " + snapshot));
+        mongoClient.close();
+        // end monitor-cp-statistics-example
+    }
+
 }
 
 // start command-listener-impl
 class CommandCounter implements CommandListener {
 
-    private Map<String, Integer> commands = new HashMap<String, Integer>();
+    private final ConcurrentMap<String, LongAdder> counts = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> elapsedNanos = new ConcurrentHashMap<>();
 
+    // Records each event without locking, so driver threads never wait on each other
     @Override
-    public synchronized void commandSucceeded(final CommandSucceededEvent event) {
+    public void commandSucceeded(final CommandSucceededEvent event) {
         String commandName = event.getCommandName();
-        int count = commands.containsKey(commandName) ? commands.get(commandName) : 0;
-        commands.put(commandName, count + 1);
-        System.out.println(commands.toString());
+        counts.computeIfAbsent(commandName, name -> new LongAdder()).increment();
+        elapsedNanos.computeIfAbsent(commandName, name -> new LongAdder())
+                .add(event.getElapsedTime(TimeUnit.NANOSECONDS));
     }
 
     @Override
@@ -108,6 +171,21 @@ class CommandCounter implements CommandListener {
                 event.getCommandName(),
                 event.getRequestId()));
     }
+
+    // Returns a snapshot of the number of successful executions of each command
+    public Map<String, Long> getCommandCounts() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        counts.forEach((commandName, count) -> snapshot.put(commandName, count.sum()));
+        return snapshot;
+    }
+
+    // Returns a snapshot of the average execution time of each command in milliseconds
+    public Map<String, Double> getAverageElapsedMillis() {
+        Map<String, Double> snapshot = new TreeMap<>();
+        elapsedNanos.forEach((commandName, nanos) ->
+                snapshot.put(commandName, nanos.sum() / 1_000_000.0 / counts.get(commandName).sum()));
+        return snapshot;
+    }
 }
 // end command-listener-impl
 
@@ -133,6 +211,100 @@ class IsWriteable implements ClusterListener {
 }
 // end cluster-listener-impl
 
+// start server-latency-impl
+class ServerLatencyTracker implements ClusterListener, ServerMonitorListener {
+
+    private static final int SAMPLES_PER_SERVER = 256;
+
+    private final ConcurrentMap<ServerAddress, RoundTripTimeHistory> histories = new ConcurrentHashMap<>();
+    private final AtomicLong unwritableSinceNanos = new AtomicLong();
+    private final LongAdder unwritableNanos = new LongAdder();
+    private volatile boolean hasBeenWritable;
+
+    // Tracks how long the cluster has no server that accepts writes, such as during an election
+    @Override
+    public void clusterDescriptionChanged(final ClusterDescriptionChangedEvent event) {
+        boolean isWritable = event.getNewDescription().hasWritableServer();
+        if (isWritable) {
+            hasBeenWritable = true;
+            long since = unwritableSinceNanos.getAndSet(0);
+            if (since != 0) {
+                unwritableNanos.add(System.nanoTime() - since);
+            }
+        } else if (hasBeenWritable) {
+            // Ignores the initial discovery of the cluster, before the driver finds a writable server
+            unwritableSinceNanos.compareAndSet(0, System.nanoTime());
+        }
+    }
+
+    // Records the round-trip time of heartbeats that the server answers immediately
+    @Override
+    public void serverHeartbeatSucceeded(final ServerHeartbeatSucceededEvent event) {
+        if (event.isAwaited()) {
+            // An awaited heartbeat waits on the server for a topology change, so its
+            // elapsed time does not measure the round-trip time
+            return;
+        }
+        histories.computeIfAbsent(event.getConnectionId().getServerId().getAddress(),
+                        address -> new RoundTripTimeHistory(SAMPLES_PER_SERVER))
+                .add(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    // Returns the 50th, 90th, and 99th percentile round-trip times in milliseconds for each server
+    public Map<ServerAddress, String> getRoundTripTimePercentiles() {
+        Map<ServerAddress, String> snapshot = new TreeMap<>(
+                (first, second) -> first.toString().compareTo(second.toString()));
+        histories.forEach((address, history) -> {
+            long[] samples = history.toSortedArray();
+            if (samples.length > 0) {
+                snapshot.put(address, String.format("p50=%.3f, p90=%.3f, p99=%.3f",
+                        percentileMillis(samples, 50),
+                        percentileMillis(samples, 90),
+                        percentileMillis(samples, 99)));
+            }
+        });
+        return snapshot;
+    }
+
+    // Returns the total time the cluster had no writable server, including any current outage
+    public long getTimeWithoutWritableServer(final TimeUnit timeUnit) {
+        long since = unwritableSinceNanos.get();
+        long current = since == 0 ? 0 : System.nanoTime() - since;
+        return timeUnit.convert(unwritableNanos.sum() + current, TimeUnit.NANOSECONDS);
+    }
+
+    private static double percentileMillis(final long[] sortedSamples, final int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sortedSamples.length) - 1;
+        return sortedSamples[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    // Keeps the most recent samples in a fixed-size ring buffer
+    private static final class RoundTripTimeHistory {
+        private final AtomicLongArray samples;
+        private final AtomicLong count = new AtomicLong();
+
+        private RoundTripTimeHistory(final int capacity) {
+            this.samples = new AtomicLongArray(capacity);
+        }
+
+        private void add(final long roundTripTimeNanos) {
+            long position = count.getAndIncrement();
+            samples.set((int) (position % samples.length()), roundTripTimeNanos);
+        }
+
+        private long[] toSortedArray() {
+            int size = (int) Math.min(count.get(), samples.length());
+            long[] copy = new long[size];
+            for (int i = 0; i < size; i++) {
+                copy[i] = samples.get(i);
+            }
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
+// end server-latency-impl
+
 // start cp-listener-impl
 class ConnectionPoolLibrarian implements ConnectionPoolListener {
 
@@ -149,3 +321,133 @@ class ConnectionPoolLibrarian implements ConnectionPoolListener {
 
 }
 // end cp-listener-impl
+
+// start cp-statistics-impl
+class ConnectionPoolStatistics implements ConnectionPoolListener {
+
+    private final ConcurrentMap<ServerAddress, PoolCounters> pools = new ConcurrentHashMap<>();
+
+    private PoolCounters countersFor(final ServerId serverId) {
+        return pools.computeIfAbsent(serverId.getAddress(), address -> new PoolCounters());
+    }
+
+    @Override
+    public void connectionCreated(final ConnectionCreatedEvent event) {
+        countersFor(event.getConnectionId().getServerId()).size.increment();
+    }
+
+    @Override
+    public void connectionClosed(final ConnectionClosedEvent event) {
+        countersFor(event.getConnectionId().getServerId()).size.decrement();
+    }
+
+    @Override
+    public void connectionCheckOutStarted(final ConnectionCheckOutStartedEvent event) {
+        countersFor(event.getServerId()).waiting.increment();
+    }
+
+    // Records the time between the check-out request and the check-out
+    @Override
+    public void connectionCheckedOut(final ConnectionCheckedOutEvent event) {
+        PoolCounters counters = countersFor(event.getConnectionId().getServerId());
+        long elapsedNanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        counters.waiting.decrement();
+        counters.inUse.increment();
+        counters.checkOuts.increment();
+        counters.checkOutNanos.add(elapsedNanos);
+        counters.maxCheckOutNanos.accumulate(elapsedNanos);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(final ConnectionCheckOutFailedEvent event) {
+        PoolCounters counters = countersFor(event.getServerId());
+        counters.waiting.decrement();
+        counters.checkOutFailures.increment();
+    }
+
+    @Override
+    public void connectionCheckedIn(final ConnectionCheckedInEvent event) {
+        countersFor(event.getConnectionId().getServerId()).inUse.decrement();
+    }
+
+    // Returns a snapshot of the pool statistics for each server without blocking the event threads
+    public Map<ServerAddress, PoolSnapshot> getSnapshot() {
+        Map<ServerAddress, PoolSnapshot> snapshot = new TreeMap<>(
+                (first, second) -> first.toString().compareTo(second.toString()));
+        pools.forEach((address, counters) -> snapshot.put(address, counters.snapshot()));
+        return snapshot;
+    }
+
+    private static final class PoolCounters {
+        private final LongAdder size = new LongAdder();
+        private final LongAdder inUse = new LongAdder();
+        private final LongAdder waiting = new LongAdder();
+        private final LongAdder checkOuts = new LongAdder();
+        private final LongAdder checkOutFailures = new LongAdder();
+        private final LongAdder checkOutNanos = new LongAdder();
+        private final LongAccumulator maxCheckOutNanos = new LongAccumulator(Long::max, 0);
+
+        private PoolSnapshot snapshot() {
+            long count = checkOuts.sum();
+            long inUseCount = inUse.sum();
+            return new PoolSnapshot(
+                    inUseCount,
+                    Math.max(size.sum() - inUseCount, 0),
+                    waiting.sum(),
+                    checkOutFailures.sum(),
+                    count == 0 ? 0 : checkOutNanos.sum() / 1_000_000.0 / count,
+                    maxCheckOutNanos.get() / 1_000_000.0);
+        }
+    }
+
+    static final class PoolSnapshot {
+        private final long inUse;
+        private final long idle;
+        private final long waiting;
+        private final long checkOutFailures;
+        private final double averageCheckOutMillis;
+        private final double maxCheckOutMillis;
+
+        private PoolSnapshot(final long inUse, final long idle, final long waiting, final long checkOutFailures,
+                             final double averageCheckOutMillis, final double maxCheckOutMillis) {
+            this.inUse = inUse;
+            this.idle = idle;
+            this.waiting = waiting;
+            this.checkOutFailures = checkOutFailures;
+            this.averageCheckOutMillis = averageCheckOutMillis;
+            this.maxCheckOutMillis = maxCheckOutMillis;
+        }
+
+        public long getInUse() {
+            return inUse;
+        }
+
+        public long getIdle() {
+            return idle;
+        }
+
+        public long getWaiting() {
+            return waiting;
+        }
+
+        public long getCheckOutFailures() {
+            return checkOutFailures;
+        }
+
+        public double getAverageCheckOutMillis() {
+            return averageCheckOutMillis;
+        }
+
+        public double getMaxCheckOutMillis() {
+            return maxCheckOutMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("inUse=%d, idle=%d, waiting=%d, checkOutFailures=%d, "
+                    + "averageCheckOutMillis=%.3f, maxCheckOutMillis=%.3f",
+                    inUse, idle, waiting, checkOutFailures, averageCheckOutMillis, maxCheckOutMillis);
+        }
+    }
+}
+// end cp-statistics-impl
@@ -38,13 +38,19 @@ public class MonolightCodec implements Codec<Monolight>{
 
         reader.readStartDocument();
         while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
-            String fieldName = reader.readName();
-            if (fieldName.equals("powerStatus")) {
-                monolight.setPowerStatus(powerStatusCodec.decode(reader, decoderContext));
-            } else if (fieldName.equals("colorTemperature")) {
-                monolight.setColorTemperature(integerCodec.decode(reader, decoderContext));
-            } else if (fieldName.equals("_id")){
-                reader.readObjectId();
+            // Dispatches on the field name with a switch statement, which
+            // compares hash codes instead of checking each name in turn
+            switch (reader.readName()) {
+                case "powerStatus":
+                    monolight.setPowerStatus(powerStatusCodec.decode(reader, decoderContext));
+                    break;
+                case "colorTemperature":
+                    monolight.setColorTemperature(integerCodec.decode(reader, decoderContext));
+                    break;
+                default:
+                    // Skips the _id field and any fields that Monolight does not define
+                    reader.skipValue();
+                    break;
             }
         }
         reader.readEndDocument();
@@ -16,18 +16,19 @@ import com.mongodb.client.MongoDatabase;
 // start class
 public class MonolightCodecExample {
 
+    // Builds the registry once so that it can reuse the Codec instances it caches
+    private static final CodecRegistry CODEC_REGISTRY = CodecRegistries.fromRegistries(
+            CodecRegistries.fromCodecs(new IntegerCodec(), new PowerStatusCodec()),
+            CodecRegistries.fromProviders(new MonolightCodecProvider()),
+            MongoClientSettings.getDefaultCodecRegistry());
+
     public static void main(String[] args) {
 
         String uri = "<MongoDB connection URI>";
 
         try (MongoClient mongoClient = MongoClients.create(uri)) {
-            CodecRegistry codecRegistry = CodecRegistries.fromRegistries(
-                    CodecRegistries.fromCodecs(new IntegerCodec(), new PowerStatusCodec()),
-                    CodecRegistries.fromProviders(new MonolightCodecProvider()),
-                    MongoClientSettings.getDefaultCodecRegistry());
-
             MongoDatabase database = mongoClient.getDatabase("codecs_example_products");
-            MongoCollection<Monolight> collection = database.getCollection("monolights", Monolight.class).withCodecRegistry(codecRegistry);
+            MongoCollection<Monolight> collection = database.getCollection("monolights", Monolight.class).withCodecRegistry(CODEC_REGISTRY);
 
             // construct and insert an instance of Monolight
             Monolight myMonolight = new Monolight();
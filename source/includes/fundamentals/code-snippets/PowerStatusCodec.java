@@ -1,6 +1,7 @@
 package fundamentals.monolightcodec;
 
 import org.bson.BsonReader;
+import org.bson.BsonType;
 import org.bson.BsonWriter;
 import org.bson.codecs.Codec;
 import org.bson.codecs.DecoderContext;
@@ -12,13 +13,20 @@ public class PowerStatusCodec implements Codec<PowerStatus> {
 
     @Override
     public void encode(BsonWriter writer, PowerStatus value, EncoderContext encoderContext) {
-        if (value != null) {
-            writer.writeBoolean(value.equals(PowerStatus.ON) ? Boolean.TRUE : Boolean.FALSE);
+        if (value == null) {
+            // Writes a BSON null so that the field name always has a value
+            writer.writeNull();
+        } else {
+            writer.writeBoolean(value == PowerStatus.ON);
         }
     }
 
     @Override
     public PowerStatus decode(BsonReader reader, DecoderContext decoderContext) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return null;
+        }
         return reader.readBoolean() ? PowerStatus.ON : PowerStatus.OFF;
     }
 
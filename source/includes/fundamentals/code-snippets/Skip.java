@@ -36,6 +36,7 @@ public class Skip {
         // skip.setupPaintCollection();
         skip.skipExample();
         skip.noResultsExample();
+        skip.keysetPaginationExample();
     }
 
     private void skipExample(){
@@ -83,6 +84,38 @@ public class Skip {
         // end skipAggregateExample
     }
 
+    private void keysetPaginationExample(){
+        // Prints the documents in pages of 3, resuming each page after the last document of the previous page
+        // begin keysetPaginationExample
+        Bson filter = Filters.empty();
+        // Sorts on "_id" after "qty" so that documents with the same "qty" value have a fixed order
+        Bson sort = Sorts.descending("qty", "_id");
+        int pageSize = 3;
+
+        Document lastDocument = null;
+        do {
+            Bson pageFilter = filter;
+            if (lastDocument != null) {
+                // Matches only documents that sort after the last document of the previous page
+                pageFilter = Filters.and(filter, Filters.or(
+                        Filters.lt("qty", lastDocument.get("qty")),
+                        Filters.and(
+                                Filters.eq("qty", lastDocument.get("qty")),
+                                Filters.lt("_id", lastDocument.get("_id")))));
+            }
+
+            List<Document> page = collection.find(pageFilter)
+                    .sort(sort)
+                    .limit(pageSize)
+                    .into(new ArrayList<>());
+            page.forEach(doc -> System.out.println(doc.toJson()));
+            System.out.println("---");
+
+            lastDocument = page.size() == pageSize ? page.get(page.size() - 1) : null;
+        } while (lastDocument != null);
+        // end keysetPaginationExample
+    }
+
     private void setupPaintCollection() {
 
         // List<Document> filterdata = new ArrayList<>();
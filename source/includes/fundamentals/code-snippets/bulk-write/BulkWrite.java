@@ -12,10 +12,20 @@ import com.mongodb.client.model.DeleteOneModel;
 import com.mongodb.client.model.DeleteManyModel;
 
 import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.WriteConcernError;
 
 import org.bson.Document;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
 
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Updates;
@@ -35,7 +45,7 @@ public class BulkWrite {
         collection = database.getCollection("bulkWrite");
     }
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
         BulkWrite bulkWrite = new BulkWrite();
         System.out.println("Ordered BulkWrite");
         bulkWrite.setUpCollection();
@@ -51,6 +61,12 @@ public class BulkWrite {
         bulkWrite.setUpCollection();
         bulkWrite.insertExceptionExample();
 
+        System.out.println("Retry Failed Writes");
+        bulkWrite.setUpCollection();
+        bulkWrite.retryFailedWritesExample(Arrays.asList(
+                new InsertOneModel<>(new Document("_id", 1)),
+                new InsertOneModel<>(new Document("_id", 3))));
+
         System.out.println("Insert");
         bulkWrite.setUpCollection();
         bulkWrite.insertDocumentsExample();
@@ -70,6 +86,13 @@ public class BulkWrite {
         bulkWrite.setUpCollection();
         bulkWrite.deleteDocumentsExample();
         bulkWrite.preview();
+
+        System.out.println("Concurrent Batches");
+        bulkWrite.setUpCollection();
+        Iterator<WriteModel<Document>> models = IntStream.range(100, 100_100)
+                .mapToObj(i -> (WriteModel<Document>) new InsertOneModel<>(new Document("_id", i)))
+                .iterator();
+        bulkWrite.concurrentBatchesExample(models);
     }
 
     
@@ -95,6 +118,126 @@ public class BulkWrite {
         //end insertExceptionExample
     }
 
+    private void retryFailedWritesExample(List<WriteModel<Document>> models) throws InterruptedException {
+        // begin retryFailedWritesExample
+        BulkWriteOptions options = new BulkWriteOptions().ordered(false);
+        int maxAttempts = 5;
+        long backoffMillis = 100;
+
+        // Tracks the position of each pending model in the original list
+        List<WriteModel<Document>> pending = new ArrayList<>(models);
+        List<Integer> pendingIndexes = new ArrayList<>();
+        for (int i = 0; i < models.size(); i++) {
+            pendingIndexes.add(i);
+        }
+
+        int insertedCount = 0;
+        Map<Integer, BulkWriteError> permanentErrors = new TreeMap<>();
+        WriteConcernError writeConcernError = null;
+
+        for (int attempt = 1; !pending.isEmpty() && attempt <= maxAttempts; attempt++) {
+            try {
+                insertedCount += collection.bulkWrite(pending, options).getInsertedCount();
+                pending = Collections.emptyList();
+            } catch (MongoBulkWriteException e) {
+                insertedCount += e.getWriteResult().getInsertedCount();
+                // Records that the server might not have replicated the applied writes as the write concern requires
+                if (e.getWriteConcernError() != null) {
+                    writeConcernError = e.getWriteConcernError();
+                }
+
+                // Keeps only the models that failed with an error that might not occur on a later attempt
+                List<WriteModel<Document>> retryable = new ArrayList<>();
+                List<Integer> retryableIndexes = new ArrayList<>();
+                for (BulkWriteError error : e.getWriteErrors()) {
+                    int originalIndex = pendingIndexes.get(error.getIndex());
+                    boolean isTransient = error.getCategory() == ErrorCategory.EXECUTION_TIMEOUT
+                            || error.getCode() == 112; // WriteConflict
+                    if (isTransient && attempt < maxAttempts) {
+                        retryable.add(pending.get(error.getIndex()));
+                        retryableIndexes.add(originalIndex);
+                    } else {
+                        permanentErrors.put(originalIndex, error);
+                    }
+                }
+                pending = retryable;
+                pendingIndexes = retryableIndexes;
+
+                if (!pending.isEmpty()) {
+                    Thread.sleep(backoffMillis);
+                    backoffMillis *= 2;
+                }
+            }
+        }
+
+        System.out.println("Inserted: " + insertedCount);
+        if (writeConcernError != null) {
+            System.out.println("Write concern not satisfied: " + writeConcernError.getMessage());
+        }
+        permanentErrors.forEach((index, error) ->
+                System.out.println("Model " + index + " failed: " + error.getMessage()));
+        //end retryFailedWritesExample
+    }
+
+    private void concurrentBatchesExample(Iterator<WriteModel<Document>> models) throws InterruptedException {
+        // begin concurrentBatchesExample
+        int batchSize = 10000;
+        int maxConcurrentBatches = 4;
+        BulkWriteOptions options = new BulkWriteOptions().ordered(false);
+
+        ExecutorService executor = Executors.newFixedThreadPool(maxConcurrentBatches);
+        // Limits the number of batches in memory by pausing the reader while all threads are busy
+        Semaphore permits = new Semaphore(maxConcurrentBatches);
+
+        LongAdder insertedCount = new LongAdder();
+        LongAdder modifiedCount = new LongAdder();
+        LongAdder deletedCount = new LongAdder();
+        List<RuntimeException> failures = Collections.synchronizedList(new ArrayList<>());
+
+        try {
+            while (models.hasNext()) {
+                // Waits for a free thread before reading the next batch
+                permits.acquire();
+
+                // Reads up to batchSize models from the iterator
+                List<WriteModel<Document>> batch = new ArrayList<>(batchSize);
+                while (models.hasNext() && batch.size() < batchSize) {
+                    batch.add(models.next());
+                }
+
+                executor.execute(() -> {
+                    try {
+                        BulkWriteResult result;
+                        try {
+                            result = collection.bulkWrite(batch, options);
+                        } catch (MongoBulkWriteException e) {
+                            // Counts the writes that succeeded before recording the failure
+                            result = e.getWriteResult();
+                            failures.add(e);
+                        }
+                        insertedCount.add(result.getInsertedCount());
+                        modifiedCount.add(result.getModifiedCount());
+                        deletedCount.add(result.getDeletedCount());
+                    } catch (RuntimeException e) {
+                        // Records every other failure, such as a server error or an invalid model
+                        failures.add(e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+
+        System.out.println("Inserted: " + insertedCount.sum()
+                + ", modified: " + modifiedCount.sum()
+                + ", deleted: " + deletedCount.sum()
+                + ", failed batches: " + failures.size());
+        //end concurrentBatchesExample
+    }
+
     private void bulkWriteNotOrderedExample() {
         List<WriteModel<Document>> bulkOperations = new ArrayList<>();
 
@@ -12,6 +12,11 @@ import com.mongodb.client.model.bulk.ClientNamespacedWriteModel;
 import org.bson.Document;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Updates;
@@ -32,7 +37,7 @@ public class ClientBulkWrite {
         thingsCollection = database.getCollection("things");
     }
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
         ClientBulkWrite clientBulkWrite = new ClientBulkWrite();
 
         System.out.println("Insert Example:");
@@ -45,6 +50,10 @@ public class ClientBulkWrite {
         System.out.println("Replace Example:");
         clientBulkWrite.setUpCollection();
         clientBulkWrite.replaceDocumentsExample();
+
+        System.out.println("Write Batcher Example:");
+        clientBulkWrite.setUpCollection();
+        clientBulkWrite.writeBatcherExample();
     }
 
     private void insertDocumentsExample(){
@@ -163,6 +172,24 @@ public class ClientBulkWrite {
         // end-order-exec
     }
 
+    private void writeBatcherExample() throws InterruptedException {
+        // start-write-batcher-usage
+        ExecutorService workers = Executors.newFixedThreadPool(8);
+
+        try (ClientWriteBatcher batcher = new ClientWriteBatcher(mongoClient, 1000, 50,
+                (models, e) -> System.err.println("Failed to write " + models.size() + " models: " + e.getMessage()))) {
+            // Submits inserts to many collections from several threads
+            for (int i = 0; i < 10000; i++) {
+                MongoNamespace namespace = new MongoNamespace("db", "tenant_" + (i % 100));
+                Document document = new Document("sequence", i);
+                workers.execute(() -> batcher.add(ClientNamespacedWriteModel.insertOne(namespace, document)));
+            }
+            workers.shutdown();
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        // end-write-batcher-usage
+    }
+
     private void setUpCollection(){
 
         peopleCollection.deleteMany(Filters.empty());
@@ -177,3 +204,81 @@ public class ClientBulkWrite {
         );
     }
 }
+
+// start-write-batcher-class
+class ClientWriteBatcher implements AutoCloseable {
+    private final MongoClient mongoClient;
+    private final int maxBatchSize;
+    private final BiConsumer<List<ClientNamespacedWriteModel>, RuntimeException> failureHandler;
+    private final ClientBulkWriteOptions options = ClientBulkWriteOptions
+            .clientBulkWriteOptions()
+            .ordered(false);
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor();
+    private List<ClientNamespacedWriteModel> batch = new ArrayList<>();
+    private boolean closed;
+
+    ClientWriteBatcher(MongoClient mongoClient, int maxBatchSize, long flushIntervalMillis,
+                       BiConsumer<List<ClientNamespacedWriteModel>, RuntimeException> failureHandler) {
+        this.mongoClient = mongoClient;
+        this.maxBatchSize = maxBatchSize;
+        this.failureHandler = failureHandler;
+        // Writes any waiting models at a fixed interval so that they don't wait for a full batch
+        flushScheduler.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    // Adds a model to the current batch, and writes the batch if it's full
+    public void add(ClientNamespacedWriteModel model) {
+        List<ClientNamespacedWriteModel> fullBatch = null;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("The batcher is closed");
+            }
+            batch.add(model);
+            if (batch.size() >= maxBatchSize) {
+                fullBatch = batch;
+                batch = new ArrayList<>();
+            }
+        }
+        if (fullBatch != null) {
+            write(fullBatch);
+        }
+    }
+
+    public void flush() {
+        List<ClientNamespacedWriteModel> waitingModels;
+        synchronized (this) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            waitingModels = batch;
+            batch = new ArrayList<>();
+        }
+        write(waitingModels);
+    }
+
+    // Writes the models outside of the lock, so other threads can keep adding models
+    private void write(List<ClientNamespacedWriteModel> models) {
+        try {
+            mongoClient.bulkWrite(models, options);
+        } catch (RuntimeException e) {
+            // Passes the models to the application, and keeps the scheduled flush running
+            failureHandler.accept(models, e);
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        synchronized (this) {
+            closed = true;
+        }
+        flushScheduler.shutdown();
+        // Waits for a scheduled flush that is already running, so that no write runs after close() returns
+        boolean flushFinished = flushScheduler.awaitTermination(1, TimeUnit.MINUTES);
+        flush();
+        if (!flushFinished) {
+            throw new IllegalStateException("Timed out waiting for a scheduled flush to finish");
+        }
+    }
+}
+// end-write-batcher-class
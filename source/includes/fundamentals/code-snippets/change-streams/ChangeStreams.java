@@ -1,24 +1,54 @@
 package org.example;
 
 import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 
 import com.mongodb.client.model.*;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
 import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonDocument;
+import org.bson.BsonInvalidOperationException;
 import org.bson.Document;
 import org.bson.conversions.Bson;
+import org.bson.json.JsonParseException;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import com.mongodb.client.model.changestream.FullDocument;
 
 public class ChangeStreams {
 
-    public static void main(String [] args){
+    public static void main(String [] args) throws IOException, InterruptedException {
         MongoClient mongoClient = MongoClients.create("<connection uri>");
         MongoDatabase database = mongoClient.getDatabase("myDb");
 
@@ -41,6 +71,11 @@ public class ChangeStreams {
 //        ChangeStreams.allFullDocumentBeforeChangeOptions(collection);
 //        ChangeStreams.allFullDocumentOptions(collection);
 //        ChangeStreams.aggregationExample(collection);
+//        ChangeStreams.projectionExample(database);
+//        ChangeStreams.resumeExample(database);
+//        ChangeStreams.parallelProcessingExample(database);
+//        ChangeStreams.coalescingExample(database);
+//        ChangeStreams.publisherExample(database);
     }
     private static void openExample(MongoDatabase database) {
         // begin openChangeStreamExample
@@ -115,4 +150,536 @@ public class ChangeStreams {
                 System.out.println("Received a change to the collection: " + event));
         // end aggregationExample
     }
+
+    private static void projectionExample(MongoDatabase database) {
+        // begin projectionExample
+        MongoCollection<Document> collection = database.getCollection("myColl");
+
+        List<Bson> pipeline = new ChangeStreamPipelineBuilder()
+                .operationTypes(OperationType.INSERT, OperationType.UPDATE, OperationType.REPLACE)
+                .updatedFields("status", "amount")
+                .fullDocumentFields("status", "amount")
+                .fullDocumentBeforeChangeFields("status")
+                .build();
+
+        ChangeStreamIterable<Document> changeStream = collection.watch(pipeline)
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .fullDocumentBeforeChange(FullDocumentBeforeChange.WHEN_AVAILABLE);
+
+        changeStream.forEach(event ->
+                System.out.println("Received a change: " + event));
+        // end projectionExample
+    }
+
+    private static void resumeExample(MongoDatabase database) throws IOException {
+        // begin resumeExample
+        MongoCollection<Document> collection = database.getCollection("myColl");
+
+        try (ResumeTokenStore tokenStore = new ResumeTokenStore(Paths.get("resume-tokens.log"), 100, 1000)) {
+            ChangeStreamIterable<Document> changeStream = collection.watch();
+
+            // Resumes after the last saved event, if the application saved one before it stopped
+            BsonDocument lastToken = tokenStore.getLastToken();
+            if (lastToken != null) {
+                changeStream = changeStream.startAfter(lastToken);
+            }
+
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = changeStream.cursor()) {
+                while (cursor.hasNext()) {
+                    ChangeStreamDocument<Document> event = cursor.next();
+                    System.out.println("Received a change: " + event);
+
+                    // Saves the token only after the application processes the event
+                    tokenStore.save(event.getResumeToken());
+                }
+            }
+        }
+        // end resumeExample
+    }
+
+    private static void parallelProcessingExample(MongoDatabase database)
+            throws IOException, InterruptedException {
+        // begin parallelProcessingExample
+        MongoCollection<Document> collection = database.getCollection("myColl");
+
+        try (ResumeTokenStore tokenStore = new ResumeTokenStore(Paths.get("resume-tokens.log"), 100, 1000);
+             PartitionedEventDispatcher dispatcher = new PartitionedEventDispatcher(8, 1000, tokenStore,
+                     event -> System.out.println(Thread.currentThread().getName() + " received a change: " + event))) {
+            ChangeStreamIterable<Document> changeStream = collection.watch();
+
+            BsonDocument lastToken = tokenStore.getLastToken();
+            if (lastToken != null) {
+                changeStream = changeStream.startAfter(lastToken);
+            }
+
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = changeStream.cursor()) {
+                while (cursor.hasNext()) {
+                    dispatcher.dispatch(cursor.next());
+                }
+            }
+        }
+        // end parallelProcessingExample
+    }
+
+    private static void coalescingExample(MongoDatabase database) {
+        // begin coalescingExample
+        MongoCollection<Document> collection = database.getCollection("myColl");
+
+        // Returns from tryNext() within the window when no events arrive
+        ChangeStreamIterable<Document> changeStream = collection.watch()
+                .maxAwaitTime(100, TimeUnit.MILLISECONDS);
+
+        CoalescingEventBuffer buffer = new CoalescingEventBuffer();
+        long windowMillis = 500;
+        long windowEnd = System.currentTimeMillis() + windowMillis;
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = changeStream.cursor()) {
+            while (true) {
+                ChangeStreamDocument<Document> event = cursor.tryNext();
+                if (event != null) {
+                    buffer.add(event);
+                }
+                if (System.currentTimeMillis() >= windowEnd) {
+                    if (buffer.getReceivedEventCount() > 0) {
+                        System.out.println("Combined " + buffer.getReceivedEventCount() + " events into "
+                                + buffer.getBufferedEventCount());
+                    }
+                    buffer.drain(combinedEvent -> System.out.println("Invalidating the cached document: "
+                            + combinedEvent.getDocumentKey()));
+                    windowEnd = System.currentTimeMillis() + windowMillis;
+                }
+            }
+        }
+        // end coalescingExample
+    }
+
+    private static void publisherExample(MongoDatabase database) {
+        // begin publisherExample
+        MongoCollection<Document> collection = database.getCollection("myColl");
+
+        ChangeStreamIterable<Document> changeStream = collection.watch()
+                .batchSize(100)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+
+        ChangeStreamPublisher publisher = new ChangeStreamPublisher(changeStream);
+        publisher.subscribe(new Flow.Subscriber<ChangeStreamDocument<Document>>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(10);
+            }
+
+            @Override
+            public void onNext(ChangeStreamDocument<Document> event) {
+                System.out.println("Received a change: " + event);
+                // Requests another event only after processing this one
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                System.err.println("The change stream failed: " + throwable);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        // end publisherExample
+    }
+}
+
+// begin changeStreamPipelineBuilder
+class ChangeStreamPipelineBuilder {
+    private final List<String> operationTypes = new ArrayList<>();
+    private final List<String> updatedFields = new ArrayList<>();
+    private final List<String> fullDocumentFields = new ArrayList<>();
+    private final List<String> fullDocumentBeforeChangeFields = new ArrayList<>();
+
+    public ChangeStreamPipelineBuilder operationTypes(OperationType... types) {
+        for (OperationType type : types) {
+            operationTypes.add(type.getValue());
+        }
+        return this;
+    }
+
+    // Receives update events only if they change one of these fields, and includes only these updated fields
+    public ChangeStreamPipelineBuilder updatedFields(String... fields) {
+        updatedFields.addAll(Arrays.asList(fields));
+        return this;
+    }
+
+    public ChangeStreamPipelineBuilder fullDocumentFields(String... fields) {
+        fullDocumentFields.addAll(Arrays.asList(fields));
+        return this;
+    }
+
+    public ChangeStreamPipelineBuilder fullDocumentBeforeChangeFields(String... fields) {
+        fullDocumentBeforeChangeFields.addAll(Arrays.asList(fields));
+        return this;
+    }
+
+    public List<Bson> build() {
+        List<Bson> pipeline = new ArrayList<>();
+
+        List<Bson> filters = new ArrayList<>();
+        if (!operationTypes.isEmpty()) {
+            filters.add(Filters.in("operationType", operationTypes));
+        }
+        if (!updatedFields.isEmpty()) {
+            List<Bson> fieldFilters = new ArrayList<>();
+            fieldFilters.add(Filters.ne("operationType", OperationType.UPDATE.getValue()));
+            for (String field : updatedFields) {
+                fieldFilters.add(Filters.exists("updateDescription.updatedFields." + field));
+                fieldFilters.add(Filters.in("updateDescription.removedFields", field));
+            }
+            filters.add(Filters.or(fieldFilters));
+        }
+        if (!filters.isEmpty()) {
+            pipeline.add(Aggregates.match(Filters.and(filters)));
+        }
+
+        // Keeps the fields that identify the event, and only the declared document fields
+        List<String> includedFields = new ArrayList<>(Arrays.asList(
+                "operationType", "ns", "documentKey", "clusterTime", "wallTime",
+                "updateDescription.removedFields"));
+        for (String field : updatedFields) {
+            includedFields.add("updateDescription.updatedFields." + field);
+        }
+        for (String field : fullDocumentFields) {
+            includedFields.add("fullDocument." + field);
+        }
+        for (String field : fullDocumentBeforeChangeFields) {
+            includedFields.add("fullDocumentBeforeChange." + field);
+        }
+        pipeline.add(Aggregates.project(Projections.include(includedFields)));
+
+        return pipeline;
+    }
+}
+// end changeStreamPipelineBuilder
+
+// begin coalescingEventBuffer
+class CoalescingEventBuffer {
+    private final Map<BsonDocument, ChangeStreamDocument<Document>> latestEvents = new LinkedHashMap<>();
+    // Documents that the buffered events created, so a later delete cancels every buffered event for them
+    private final Set<BsonDocument> insertedKeys = new HashSet<>();
+    private int receivedEvents;
+    private BsonDocument lastResumeToken;
+
+    public void add(ChangeStreamDocument<Document> event) {
+        receivedEvents++;
+        lastResumeToken = event.getResumeToken();
+        // Events such as drop don't have a document key, so the buffer never combines them
+        BsonDocument key = event.getDocumentKey() != null ? event.getDocumentKey() : event.getResumeToken();
+        OperationType operationType = event.getOperationType();
+
+        if (operationType == OperationType.INSERT && !latestEvents.containsKey(key)) {
+            insertedKeys.add(key);
+        }
+        if (operationType == OperationType.DELETE && insertedKeys.remove(key)) {
+            latestEvents.remove(key);
+            return;
+        }
+        latestEvents.put(key, event);
+    }
+
+    public int getReceivedEventCount() {
+        return receivedEvents;
+    }
+
+    public int getBufferedEventCount() {
+        return latestEvents.size();
+    }
+
+    // Returns the token of the last event that the buffer received, including events that it combined
+    public BsonDocument getLastResumeToken() {
+        return lastResumeToken;
+    }
+
+    // Passes the latest event for each document to the handler, and empties the buffer
+    public void drain(Consumer<ChangeStreamDocument<Document>> handler) {
+        latestEvents.values().forEach(handler);
+        latestEvents.clear();
+        insertedKeys.clear();
+        receivedEvents = 0;
+    }
+}
+// end coalescingEventBuffer
+
+// begin changeStreamPublisher
+class ChangeStreamPublisher implements Flow.Publisher<ChangeStreamDocument<Document>> {
+    private final ChangeStreamIterable<Document> changeStream;
+
+    ChangeStreamPublisher(ChangeStreamIterable<Document> changeStream) {
+        this.changeStream = changeStream;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ChangeStreamDocument<Document>> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        ChangeStreamSubscription subscription = new ChangeStreamSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        new Thread(subscription::run, "change-stream-publisher").start();
+    }
+
+    private class ChangeStreamSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super ChangeStreamDocument<Document>> subscriber;
+        private long demand;
+        private boolean cancelled;
+        private IllegalArgumentException invalidRequest;
+
+        ChangeStreamSubscription(Flow.Subscriber<? super ChangeStreamDocument<Document>> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("The number of requested events must be positive");
+            } else {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void cancel() {
+            cancelled = true;
+            notifyAll();
+        }
+
+        // Waits until the subscriber requests an event, and returns false if the subscription ended
+        private synchronized boolean awaitDemand() throws InterruptedException {
+            while (demand == 0 && !cancelled && invalidRequest == null) {
+                wait();
+            }
+            if (demand > 0 && !cancelled && invalidRequest == null) {
+                demand--;
+                return true;
+            }
+            return false;
+        }
+
+        private synchronized void restoreDemand() {
+            demand++;
+        }
+
+        // Reads an event only when the subscriber requested one, so the driver runs a getMore command only
+        // when the subscriber keeps up, and holds at most one batch of unrequested events
+        private void run() {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = changeStream.cursor()) {
+                while (awaitDemand()) {
+                    ChangeStreamDocument<Document> event = cursor.tryNext();
+                    if (event == null) {
+                        restoreDemand();
+                        continue;
+                    }
+                    try {
+                        subscriber.onNext(event);
+                    } catch (RuntimeException e) {
+                        // Treats the subscription as cancelled without signaling the subscriber again
+                        cancel();
+                        return;
+                    }
+                }
+                if (invalidRequest != null) {
+                    subscriber.onError(invalidRequest);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                // Reports a failure to open or read the change stream
+                subscriber.onError(e);
+            }
+        }
+    }
+}
+// end changeStreamPublisher
+
+// begin resumeTokenStore
+class ResumeTokenStore implements AutoCloseable {
+    private final FileChannel channel;
+    private final int maxUnsyncedTokens;
+    private final long maxUnsyncedMillis;
+    private final BsonDocument lastToken;
+    private int unsyncedTokens;
+    private long lastSyncMillis = System.currentTimeMillis();
+
+    ResumeTokenStore(Path file, int maxUnsyncedTokens, long maxUnsyncedMillis) throws IOException {
+        this.maxUnsyncedTokens = maxUnsyncedTokens;
+        this.maxUnsyncedMillis = maxUnsyncedMillis;
+        lastToken = readLastToken(file);
+
+        // Replaces the file with only the last token so that it doesn't grow across restarts
+        Path compactedFile = Paths.get(file + ".tmp");
+        try (FileChannel compacted = FileChannel.open(compactedFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (lastToken != null) {
+                compacted.write(toLine(lastToken));
+            }
+            compacted.force(true);
+        }
+        Files.move(compactedFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    public BsonDocument getLastToken() {
+        return lastToken;
+    }
+
+    // Appends a token to the file, and forces it to disk after maxUnsyncedTokens tokens, or if maxUnsyncedMillis
+    // passed since the last sync. Checks the time only when saving a token.
+    public void save(BsonDocument token) throws IOException {
+        channel.write(toLine(token));
+        unsyncedTokens++;
+        if (unsyncedTokens >= maxUnsyncedTokens
+                || System.currentTimeMillis() - lastSyncMillis >= maxUnsyncedMillis) {
+            sync();
+        }
+    }
+
+    public void sync() throws IOException {
+        channel.force(false);
+        unsyncedTokens = 0;
+        lastSyncMillis = System.currentTimeMillis();
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+        channel.close();
+    }
+
+    // Returns the last complete token in the file, skipping a line that a crash left partly written
+    private static BsonDocument readLastToken(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        BsonDocument token = null;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    token = BsonDocument.parse(line);
+                } catch (JsonParseException | BsonInvalidOperationException e) {
+                    // Ignores the incomplete line
+                }
+            }
+        }
+        return token;
+    }
+
+    private static ByteBuffer toLine(BsonDocument token) {
+        return ByteBuffer.wrap((token.toJson() + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+}
+// end resumeTokenStore
+
+// begin partitionedEventDispatcher
+class PartitionedEventDispatcher implements AutoCloseable {
+    private final ExecutorService[] workers;
+    private final Semaphore inFlightEvents;
+    private final ResumeTokenStore tokenStore;
+    private final Consumer<ChangeStreamDocument<Document>> handler;
+    // Tokens of dispatched events, in change stream order. A null value means the event isn't processed yet.
+    private final TreeMap<Long, BsonDocument> completedTokens = new TreeMap<>();
+    private final Object tokenStoreLock = new Object();
+    private long nextSequence;
+    private long savedSequence = -1;
+    private volatile Throwable failure;
+
+    PartitionedEventDispatcher(int workerCount, int maxInFlightEvents, ResumeTokenStore tokenStore,
+                               Consumer<ChangeStreamDocument<Document>> handler) {
+        workers = new ExecutorService[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = Executors.newSingleThreadExecutor();
+        }
+        this.inFlightEvents = new Semaphore(maxInFlightEvents);
+        this.tokenStore = tokenStore;
+        this.handler = handler;
+    }
+
+    // Sends every event for the same document to the same worker, so that the worker processes them in order
+    public void dispatch(ChangeStreamDocument<Document> event) throws InterruptedException {
+        throwIfFailed();
+        inFlightEvents.acquire();
+        long sequence;
+        synchronized (this) {
+            sequence = nextSequence++;
+            completedTokens.put(sequence, null);
+        }
+        BsonDocument documentKey = event.getDocumentKey();
+        int partition = Math.floorMod(documentKey == null ? 0 : documentKey.hashCode(), workers.length);
+        workers[partition].execute(() -> {
+            try {
+                handler.accept(event);
+                complete(sequence, event.getResumeToken());
+            } catch (Throwable t) {
+                // Keeps the first failure, which stops the dispatcher before it saves a later token
+                synchronized (this) {
+                    if (failure == null) {
+                        failure = t;
+                    }
+                }
+            } finally {
+                inFlightEvents.release();
+            }
+        });
+    }
+
+    // Saves the token of the latest event for which the application processed every earlier event
+    private void complete(long sequence, BsonDocument token) {
+        long lowWaterMarkSequence = -1;
+        BsonDocument lowWaterMark = null;
+        synchronized (this) {
+            completedTokens.put(sequence, token);
+            while (!completedTokens.isEmpty() && completedTokens.firstEntry().getValue() != null) {
+                Map.Entry<Long, BsonDocument> completed = completedTokens.pollFirstEntry();
+                lowWaterMarkSequence = completed.getKey();
+                lowWaterMark = completed.getValue();
+            }
+        }
+        if (lowWaterMark == null) {
+            return;
+        }
+        // Saves outside of the dispatcher's lock, so that other workers can complete events while a save
+        // forces the file to disk. Skips a token if another worker already saved a later one.
+        synchronized (tokenStoreLock) {
+            if (lowWaterMarkSequence > savedSequence && failure == null) {
+                try {
+                    tokenStore.save(lowWaterMark);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                savedSequence = lowWaterMarkSequence;
+            }
+        }
+    }
+
+    // Throws a new exception each time, so that close() can add it to an exception that dispatch() threw
+    private void throwIfFailed() {
+        if (failure != null) {
+            throw new IllegalStateException("A worker failed to process a change event", failure);
+        }
+    }
+
+    // Waits for the workers to finish, and throws the first exception that a worker threw
+    @Override
+    public void close() throws InterruptedException {
+        for (ExecutorService worker : workers) {
+            worker.shutdown();
+        }
+        for (ExecutorService worker : workers) {
+            worker.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        throwIfFailed();
+    }
 }
+// end partitionedEventDispatcher
@@ -5,8 +5,9 @@ import java.util.Optional;
 
 public class ApplicationUser {
     
-    private Optional<Address> optionalAddress;
-    private Optional<Subscription> optionalSubscription;
+    // Defaults to empty when the document doesn't contain the field
+    private Optional<Address> optionalAddress = Optional.empty();
+    private Optional<Subscription> optionalSubscription = Optional.empty();
     private String name;
     
     public ApplicationUser() {}
@@ -18,13 +19,14 @@ public class ApplicationUser {
         return optionalAddress;
     }
     public void setOptionalAddress(Optional<Address> optionalAddress) {
-        this.optionalAddress = optionalAddress;
+        // The PojoCodec passes null when the field contains a BSON null value
+        this.optionalAddress = optionalAddress != null ? optionalAddress : Optional.empty();
     }
     public Optional<Subscription> getOptionalSubscription() {
         return optionalSubscription;
     }
     public void setOptionalSubscription(Optional<Subscription> optionalSubscription) {
-        this.optionalSubscription = optionalSubscription;
+        this.optionalSubscription = optionalSubscription != null ? optionalSubscription : Optional.empty();
     }
     public String getName() {
         return name;
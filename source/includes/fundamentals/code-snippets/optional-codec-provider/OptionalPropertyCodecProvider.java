@@ -1,6 +1,9 @@
 package org.example.pojos;
 
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
 
 import org.bson.BsonReader;
 import org.bson.BsonWriter;
@@ -22,6 +25,12 @@ public class OptionalPropertyCodecProvider implements PropertyCodecProvider {
             // Get the codec for the concrete type of the Optional, as its declared in the POJO.
             Codec<?> valueCodec = registry.get(type.getTypeParameters().get(0));
             return new OptionalCodec(type.getType(), valueCodec);
+        } else if (type.getType() == OptionalInt.class) {
+            return (Codec<T>) new OptionalIntCodec();
+        } else if (type.getType() == OptionalLong.class) {
+            return (Codec<T>) new OptionalLongCodec();
+        } else if (type.getType() == OptionalDouble.class) {
+            return (Codec<T>) new OptionalDoubleCodec();
         } else {
             return null;
         }
@@ -55,5 +64,68 @@ public class OptionalPropertyCodecProvider implements PropertyCodecProvider {
             return encoderClass;
         }
     }
+
+    private static final class OptionalIntCodec implements Codec<OptionalInt> {
+        @Override
+        public void encode(final BsonWriter writer, final OptionalInt optionalValue, final EncoderContext encoderContext) {
+            if (optionalValue != null && optionalValue.isPresent()) {
+                writer.writeInt32(optionalValue.getAsInt());
+            } else {
+                writer.writeNull();
+            }
+        }
+
+        @Override
+        public OptionalInt decode(final BsonReader reader, final DecoderContext context) {
+            return OptionalInt.of(reader.readInt32());
+        }
+
+        @Override
+        public Class<OptionalInt> getEncoderClass() {
+            return OptionalInt.class;
+        }
+    }
+
+    private static final class OptionalLongCodec implements Codec<OptionalLong> {
+        @Override
+        public void encode(final BsonWriter writer, final OptionalLong optionalValue, final EncoderContext encoderContext) {
+            if (optionalValue != null && optionalValue.isPresent()) {
+                writer.writeInt64(optionalValue.getAsLong());
+            } else {
+                writer.writeNull();
+            }
+        }
+
+        @Override
+        public OptionalLong decode(final BsonReader reader, final DecoderContext context) {
+            return OptionalLong.of(reader.readInt64());
+        }
+
+        @Override
+        public Class<OptionalLong> getEncoderClass() {
+            return OptionalLong.class;
+        }
+    }
+
+    private static final class OptionalDoubleCodec implements Codec<OptionalDouble> {
+        @Override
+        public void encode(final BsonWriter writer, final OptionalDouble optionalValue, final EncoderContext encoderContext) {
+            if (optionalValue != null && optionalValue.isPresent()) {
+                writer.writeDouble(optionalValue.getAsDouble());
+            } else {
+                writer.writeNull();
+            }
+        }
+
+        @Override
+        public OptionalDouble decode(final BsonReader reader, final DecoderContext context) {
+            return OptionalDouble.of(reader.readDouble());
+        }
+
+        @Override
+        public Class<OptionalDouble> getEncoderClass() {
+            return OptionalDouble.class;
+        }
+    }
 }
 // end optionalPropertyCodecProvider
@@ -0,0 +1,67 @@
+package fundamentals.codecs.records;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+
+// Encodes NetworkDeviceRecord with explicit field mappings instead of
+// building a class model from the record annotations at runtime
+// start networkDeviceRecordCodec
+public class NetworkDeviceRecordCodec implements Codec<NetworkDeviceRecord> {
+
+    @Override
+    public void encode(BsonWriter writer, NetworkDeviceRecord value, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        // Omits null components, like the default record codec
+        if (value.deviceId() != null) {
+            // Matches @BsonId and @BsonRepresentation(BsonType.OBJECT_ID)
+            writer.writeObjectId("_id", new ObjectId(value.deviceId()));
+        }
+        if (value.name() != null) {
+            writer.writeString("name", value.name());
+        }
+        if (value.deviceType() != null) {
+            // Matches @BsonProperty("type")
+            writer.writeString("type", value.deviceType());
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public NetworkDeviceRecord decode(BsonReader reader, DecoderContext decoderContext) {
+        String deviceId = null;
+        String name = null;
+        String deviceType = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id":
+                    deviceId = reader.readObjectId().toHexString();
+                    break;
+                case "name":
+                    name = reader.readString();
+                    break;
+                case "type":
+                    deviceType = reader.readString();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.readEndDocument();
+
+        return new NetworkDeviceRecord(deviceId, name, deviceType);
+    }
+
+    @Override
+    public Class<NetworkDeviceRecord> getEncoderClass() {
+        return NetworkDeviceRecord.class;
+    }
+}
+// end networkDeviceRecordCodec